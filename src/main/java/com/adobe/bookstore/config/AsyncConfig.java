@@ -0,0 +1,20 @@
+package com.adobe.bookstore.config;
+
+import org.springframework.boot.task.TaskExecutorCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+@Configuration
+public class AsyncConfig {
+
+    /**
+     * The @Async queue is bounded (see spring.task.execution.pool.queue-capacity). When it is full the calling thread
+     * runs the task itself, which slows the producer down instead of dropping a stock update.
+     */
+    @Bean
+    public TaskExecutorCustomizer callerRunsWhenSaturated() {
+        return executor -> executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+}
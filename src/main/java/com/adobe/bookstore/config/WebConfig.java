@@ -0,0 +1,24 @@
+package com.adobe.bookstore.config;
+
+import com.adobe.bookstore.web.AdmissionControlInterceptor;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+public class WebConfig implements WebMvcConfigurer {
+
+    private final AdmissionControlInterceptor admissionControlInterceptor;
+
+    public WebConfig(AdmissionControlInterceptor admissionControlInterceptor) {
+        this.admissionControlInterceptor = admissionControlInterceptor;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(admissionControlInterceptor)
+                .addPathPatterns("/orders", "/orders/**", "/books_stock/**")
+                // Change streams are long-lived and would hold a permit for as long as the consumer is connected.
+                .excludePathPatterns("/books_stock/changes");
+    }
+}
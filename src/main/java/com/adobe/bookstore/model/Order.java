@@ -1,7 +1,9 @@
 package com.adobe.bookstore.model;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.persistence.*;
 
+import java.time.Instant;
 import java.util.List;
 import java.util.UUID;
 
@@ -17,10 +19,21 @@ public class Order {
     @Id
     @GeneratedValue(strategy = GenerationType.AUTO)
     private UUID orderId;
+    // Creation time, set by the server. Orders older than the archival threshold are moved to the order archive.
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    @Column(name = "created_at")
+    private Instant createdAt;
 
     public Order() {
     }
 
+    @PrePersist
+    void onCreate() {
+        if (createdAt == null) {
+            createdAt = Instant.now();
+        }
+    }
+
     public List<BookOrder> getBooks() {
         return books;
     }
@@ -44,4 +57,12 @@ public class Order {
     public void setOrderId(UUID orderId) {
         this.orderId = orderId;
     }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(Instant createdAt) {
+        this.createdAt = createdAt;
+    }
 }
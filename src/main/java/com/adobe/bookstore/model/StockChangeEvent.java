@@ -0,0 +1,39 @@
+package com.adobe.bookstore.model;
+
+// A single quantity change of a book, as published on the stock change stream.
+public class StockChangeEvent {
+
+    private final long sequence;
+    private final String bookId;
+    private final int quantity;
+    private final int delta;
+    private final long timestamp;
+
+    public StockChangeEvent(long sequence, String bookId, int quantity, int delta, long timestamp) {
+        this.sequence = sequence;
+        this.bookId = bookId;
+        this.quantity = quantity;
+        this.delta = delta;
+        this.timestamp = timestamp;
+    }
+
+    public long getSequence() {
+        return sequence;
+    }
+
+    public String getBookId() {
+        return bookId;
+    }
+
+    public int getQuantity() {
+        return quantity;
+    }
+
+    public int getDelta() {
+        return delta;
+    }
+
+    public long getTimestamp() {
+        return timestamp;
+    }
+}
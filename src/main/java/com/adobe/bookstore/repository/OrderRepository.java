@@ -1,9 +1,16 @@
 package com.adobe.bookstore.repository;
 
 import com.adobe.bookstore.model.Order;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 
+import java.time.Instant;
+import java.util.List;
 import java.util.UUID;
 
 public interface OrderRepository extends JpaRepository<Order, UUID> {
+
+    List<Order> findByCreatedAtBefore(Instant cutoff, Pageable pageable);
+
+    List<Order> findByCreatedAtBetween(Instant from, Instant to);
 }
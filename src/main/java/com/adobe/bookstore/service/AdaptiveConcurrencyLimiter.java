@@ -0,0 +1,92 @@
+package com.adobe.bookstore.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * AIMD concurrency limit driven by the latency of saving orders. While saves are faster than the target latency the
+ * limit grows by one every "limit" samples, and as soon as a save is slow (or fails) the limit is cut by the backoff
+ * ratio. Reads may use the whole limit, whereas writes only get a share of it so reads keep flowing under overload.
+ */
+@Component
+public class AdaptiveConcurrencyLimiter {
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final long targetLatencyNanos;
+    private final double backoffRatio;
+    private final double writeShare;
+
+    private double limit;
+    private int inFlight;
+    private int writesInFlight;
+    // Samples seen since the last backoff, so that one burst of slow saves only cuts the limit once.
+    private int samplesSinceBackoff = Integer.MAX_VALUE;
+
+    public AdaptiveConcurrencyLimiter(@Value("${bookstore.admission.initial-limit:20}") int initialLimit,
+                                      @Value("${bookstore.admission.min-limit:2}") int minLimit,
+                                      @Value("${bookstore.admission.max-limit:200}") int maxLimit,
+                                      @Value("${bookstore.admission.target-latency-ms:250}") long targetLatencyMs,
+                                      @Value("${bookstore.admission.backoff-ratio:0.9}") double backoffRatio,
+                                      @Value("${bookstore.admission.write-share:0.75}") double writeShare) {
+        this.limit = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.targetLatencyNanos = TimeUnit.MILLISECONDS.toNanos(targetLatencyMs);
+        this.backoffRatio = backoffRatio;
+        this.writeShare = writeShare;
+    }
+
+    /**
+     * Try to admit a request. Every successful call must be followed by exactly one call to release() with the same
+     * kind. Reads count against the whole limit; writes only against their own share of it, so a steady read load
+     * can never starve the writes that drive the limit back up.
+     */
+    public synchronized boolean tryAcquire(boolean write) {
+        if (write ? writesInFlight >= Math.max(1, limit * writeShare) : inFlight >= limit) {
+            return false;
+        }
+        inFlight++;
+        if (write) {
+            writesInFlight++;
+        }
+        return true;
+    }
+
+    public synchronized void release(boolean write) {
+        if (inFlight > 0) {
+            inFlight--;
+        }
+        if (write && writesInFlight > 0) {
+            writesInFlight--;
+        }
+    }
+
+    /**
+     * Feed the latency of one order save into the limit. The limit backs off at most once per window of "limit"
+     * samples: the saves that were already in flight when the database slowed down all report slow together.
+     */
+    public synchronized void onSample(long latencyNanos, boolean success) {
+        if (samplesSinceBackoff < Integer.MAX_VALUE) {
+            samplesSinceBackoff++;
+        }
+        if (!success || latencyNanos > targetLatencyNanos) {
+            if (samplesSinceBackoff >= limit) {
+                limit = Math.max(minLimit, limit * backoffRatio);
+                samplesSinceBackoff = 0;
+            }
+        } else {
+            limit = Math.min(maxLimit, limit + 1.0 / limit);
+        }
+    }
+
+    public synchronized int getLimit() {
+        return (int) limit;
+    }
+
+    public synchronized int getInFlight() {
+        return inFlight;
+    }
+}
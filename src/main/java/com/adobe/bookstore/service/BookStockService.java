@@ -3,12 +3,21 @@ package com.adobe.bookstore.service;
 import com.adobe.bookstore.model.BookOrder;
 import com.adobe.bookstore.model.BookStock;
 import com.adobe.bookstore.repository.BookStockRepository;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 
 import java.awt.print.Book;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -16,10 +25,25 @@ import org.slf4j.LoggerFactory;
 public class BookStockService {
 
     private BookStockRepository stockRepository;
+    private StockChangeStream stockChangeStream;
     private static final Logger logger = LoggerFactory.getLogger(BookStockService.class);
 
-    public BookStockService(BookStockRepository stockRepository){
+    // Orders with at least this many lines are validated in parallel, in partitions of at most partitionSize lines.
+    // Disabled by default (Integer.MAX_VALUE) until a benchmark against the real database shows a crossover.
+    private final int parallelThreshold;
+    private final int partitionSize;
+    private final ForkJoinPool validationPool;
+
+    public BookStockService(BookStockRepository stockRepository,
+                            StockChangeStream stockChangeStream,
+                            @Value("${bookstore.validation.parallel-threshold:2147483647}") int parallelThreshold,
+                            @Value("${bookstore.validation.partition-size:128}") int partitionSize,
+                            @Value("${bookstore.validation.parallelism:4}") int parallelism){
         this.stockRepository = stockRepository;
+        this.stockChangeStream = stockChangeStream;
+        this.parallelThreshold = parallelThreshold;
+        this.partitionSize = partitionSize;
+        this.validationPool = new ForkJoinPool(parallelism);
     }
 
     /**
@@ -32,9 +56,80 @@ public class BookStockService {
         }
         return false;
     }
+    /**
+     * Check all the lines of an order and return the ids of the books without enough stock, in order of appearance.
+     * Small orders are checked with a single batched lookup, large ones are split and checked in parallel.
+     */
+    public List<String> findInsufficientStock(List<BookOrder> books) {
+        if (books.size() < parallelThreshold) {
+            return validateSequentially(books);
+        }
+        return validateInParallel(books);
+    }
+
+    public List<String> validateSequentially(List<BookOrder> books) {
+        return validatePartition(books);
+    }
+
+    public List<String> validateInParallel(List<BookOrder> books) {
+        return validationPool.invoke(new ValidationTask(books));
+    }
+
+    /**
+     * Checks one partition of the order lines with a single batched lookup of their stock.
+     */
+    private List<String> validatePartition(List<BookOrder> books) {
+        Set<String> bookIds = new HashSet<>();
+        for (BookOrder bookOrder : books) {
+            bookIds.add(bookOrder.getBookId());
+        }
+        Map<String, Integer> quantities = new HashMap<>();
+        for (BookStock stock : stockRepository.findAllById(bookIds)) {
+            quantities.put(stock.getId(), stock.getQuantity());
+        }
+
+        List<String> insufficient = new ArrayList<>();
+        for (BookOrder bookOrder : books) {
+            Integer quantity = quantities.get(bookOrder.getBookId());
+            if (quantity == null || quantity < bookOrder.getBookQuantity()) {
+                insufficient.add(bookOrder.getBookId());
+            }
+        }
+        return insufficient;
+    }
+
+    @SuppressWarnings("serial")
+    private class ValidationTask extends RecursiveTask<List<String>> {
+
+        private final List<BookOrder> books;
+
+        ValidationTask(List<BookOrder> books) {
+            this.books = books;
+        }
+
+        @Override
+        protected List<String> compute() {
+            if (books.size() <= partitionSize) {
+                return validatePartition(books);
+            }
+            int middle = books.size() / 2;
+            ValidationTask left = new ValidationTask(books.subList(0, middle));
+            ValidationTask right = new ValidationTask(books.subList(middle, books.size()));
+            left.fork();
+            List<String> insufficient = new ArrayList<>(right.compute());
+            insufficient.addAll(0, left.join());
+            return insufficient;
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        validationPool.shutdown();
+    }
+
     /**
      * This function is in-charge for updating the stock upon an order is made. In case of a possible issue, it catches the error
-     * to avoid causing issue to order processing.
+     * to avoid causing issue to order processing. Every change is published on the stock change stream.
      */
     @Async
     public void updateStock(List<BookOrder> books) {
@@ -43,6 +138,7 @@ public class BookStockService {
                 stockRepository.findById(bookOrder.getBookId()).ifPresent(stock -> {
                     stock.setQuantity(stock.getQuantity() - bookOrder.getBookQuantity());
                     stockRepository.save(stock);
+                    stockChangeStream.publish(stock.getId(), stock.getQuantity(), -bookOrder.getBookQuantity());
                 });
             }catch(Exception e){
                 logger.error("Failed to update stock for bookId: " + bookOrder.getBookId(), e);
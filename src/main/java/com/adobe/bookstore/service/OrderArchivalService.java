@@ -0,0 +1,92 @@
+package com.adobe.bookstore.service;
+
+import com.adobe.bookstore.model.Order;
+import com.adobe.bookstore.repository.OrderRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Periodically moves orders older than the threshold from the orders table into the order archive, so the hot table
+ * only keeps recent orders. Nothing is moved while the archive is disabled.
+ */
+@Service
+public class OrderArchivalService {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderArchivalService.class);
+
+    private final OrderRepository orderRepository;
+    private final OrderArchive orderArchive;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration threshold;
+    private final int batchSize;
+
+    public OrderArchivalService(OrderRepository orderRepository, OrderArchive orderArchive,
+                                TransactionTemplate transactionTemplate,
+                                @Value("${bookstore.archive.threshold-days:90}") long thresholdDays,
+                                @Value("${bookstore.archive.batch-size:1000}") int batchSize) {
+        this.orderRepository = orderRepository;
+        this.orderArchive = orderArchive;
+        this.transactionTemplate = transactionTemplate;
+        this.threshold = Duration.ofDays(thresholdDays);
+        this.batchSize = batchSize;
+    }
+
+    @Scheduled(fixedDelayString = "${bookstore.archive.interval-ms:3600000}",
+            initialDelayString = "${bookstore.archive.interval-ms:3600000}")
+    public void archiveAgedOrders() {
+        if (!orderArchive.isEnabled()) {
+            return;
+        }
+        try {
+            int archived = archiveOrdersBefore(Instant.now().minus(threshold));
+            if (archived > 0) {
+                logger.info("Archived " + archived + " orders");
+            }
+        } catch (Exception e) {
+            logger.error("Failed to archive aged orders", e);
+        }
+    }
+
+    /**
+     * Archives every order created before the cutoff, one batch (and one segment) per transaction. A batch is only
+     * deleted from the table once its segment is on disk; if the delete fails the orders exist in both places and the
+     * table copy wins on retrieval until the next run archives them again.
+     */
+    public int archiveOrdersBefore(Instant cutoff) {
+        int total = 0;
+        while (true) {
+            Integer archived = transactionTemplate.execute(status -> {
+                List<Order> orders = orderRepository.findByCreatedAtBefore(cutoff,
+                        PageRequest.of(0, batchSize, Sort.by("createdAt")));
+                if (orders.isEmpty()) {
+                    return 0;
+                }
+                try {
+                    // Touch the element collection while the session is open.
+                    orders.forEach(order -> order.getBooks().size());
+                    orderArchive.append(orders);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                orderRepository.deleteAll(orders);
+                return orders.size();
+            });
+            if (archived == null || archived == 0) {
+                return total;
+            }
+            total += archived;
+        }
+    }
+}
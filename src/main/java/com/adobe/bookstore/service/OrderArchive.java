@@ -0,0 +1,346 @@
+package com.adobe.bookstore.service;
+
+import com.adobe.bookstore.model.BookOrder;
+import com.adobe.bookstore.model.Order;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Append-only archive of aged orders. Every archival run writes a new immutable segment file; segments are never
+ * modified afterwards.
+ *
+ * Segment layout: magic and version, then blocks of orders sorted by order id, each block deflated on its own and
+ * prefixed by its compressed and raw length. The footer is a sparse index with, per block, its offset, first and last
+ * order id and the oldest and newest creation time, followed by the footer offset and the magic. Only the footers are
+ * kept in memory, so a lookup inflates at most the blocks that can contain the requested order or dates.
+ *
+ * The archive is the only copy of the orders it holds, so there is no default directory: it stays disabled, and finds
+ * nothing, until bookstore.archive.dir points at durable storage.
+ */
+@Component
+public class OrderArchive {
+
+    static final int MAGIC = 0x424B4152; // "BKAR"
+    static final int VERSION = 1;
+    private static final String SEGMENT_PREFIX = "orders-";
+    private static final String SEGMENT_SUFFIX = ".seg";
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderArchive.class);
+
+    // Null while archival is disabled.
+    private final Path directory;
+    private final int blockSize;
+    // Oldest segment first.
+    private final List<Segment> segments = new CopyOnWriteArrayList<>();
+
+    public OrderArchive(@Value("${bookstore.archive.dir:}") String directory,
+                        @Value("${bookstore.archive.block-size:128}") int blockSize) {
+        this.directory = directory.isBlank() ? null : Paths.get(directory);
+        this.blockSize = blockSize;
+    }
+
+    /**
+     * Loads the sparse index of every existing segment. Unreadable segments are skipped with a warning.
+     */
+    @PostConstruct
+    public void load() throws IOException {
+        if (directory == null) {
+            logger.info("Order archival is disabled until bookstore.archive.dir is set");
+            return;
+        }
+        Files.createDirectories(directory);
+        List<Path> paths = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+            stream.forEach(paths::add);
+        }
+        paths.sort(Comparator.naturalOrder());
+        for (Path path : paths) {
+            try {
+                segments.add(readIndex(path));
+            } catch (IOException | RuntimeException e) {
+                logger.warn("Skipping unreadable order archive segment: " + path, e);
+            }
+        }
+    }
+
+    /**
+     * Writes the given orders into a new segment. The segment only becomes visible once it is completely on disk.
+     */
+    public synchronized void append(List<Order> orders) throws IOException {
+        if (directory == null) {
+            throw new IllegalStateException("Order archival is disabled, bookstore.archive.dir is not set");
+        }
+        if (orders.isEmpty()) {
+            return;
+        }
+        List<Order> sorted = new ArrayList<>(orders);
+        sorted.sort(Comparator.comparing(Order::getOrderId));
+
+        ByteArrayOutputStream file = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(file);
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+
+        List<Block> blocks = new ArrayList<>();
+        for (int start = 0; start < sorted.size(); start += blockSize) {
+            List<Order> blockOrders = sorted.subList(start, Math.min(start + blockSize, sorted.size()));
+            byte[] raw = encode(blockOrders);
+            byte[] compressed = deflate(raw);
+            long minCreated = Long.MAX_VALUE;
+            long maxCreated = Long.MIN_VALUE;
+            for (Order order : blockOrders) {
+                long created = order.getCreatedAt().toEpochMilli();
+                minCreated = Math.min(minCreated, created);
+                maxCreated = Math.max(maxCreated, created);
+            }
+            blocks.add(new Block(out.size(), blockOrders.get(0).getOrderId(),
+                    blockOrders.get(blockOrders.size() - 1).getOrderId(), minCreated, maxCreated));
+            out.writeInt(compressed.length);
+            out.writeInt(raw.length);
+            out.write(compressed);
+        }
+
+        long footerOffset = out.size();
+        out.writeInt(blocks.size());
+        for (Block block : blocks) {
+            out.writeLong(block.offset);
+            writeUuid(out, block.firstId);
+            writeUuid(out, block.lastId);
+            out.writeLong(block.minCreated);
+            out.writeLong(block.maxCreated);
+        }
+        out.writeLong(footerOffset);
+        out.writeInt(MAGIC);
+        out.flush();
+
+        Path path = directory.resolve(String.format("%s%020d-%s%s", SEGMENT_PREFIX, System.currentTimeMillis(),
+                UUID.randomUUID(), SEGMENT_SUFFIX));
+        Path tmp = Files.createTempFile(directory, SEGMENT_PREFIX, ".tmp");
+        try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.WRITE)) {
+            ByteBuffer buffer = ByteBuffer.wrap(file.toByteArray());
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(true);
+        }
+        Files.move(tmp, path, StandardCopyOption.ATOMIC_MOVE);
+        segments.add(new Segment(path, blocks));
+    }
+
+    /**
+     * Looks an order up by id, using the sparse index to inflate at most one block per segment.
+     */
+    public Optional<Order> findById(UUID orderId) {
+        for (int i = segments.size() - 1; i >= 0; i--) {
+            Segment segment = segments.get(i);
+            for (Block block : segment.blocks) {
+                if (block.firstId.compareTo(orderId) <= 0 && block.lastId.compareTo(orderId) >= 0) {
+                    for (Order order : readBlock(segment, block)) {
+                        if (order.getOrderId().equals(orderId)) {
+                            return Optional.of(order);
+                        }
+                    }
+                }
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Archived orders created between the given instants (both inclusive), at most "limit" of them. Blocks outside the
+     * range are skipped without being read, and reading stops as soon as the limit is reached.
+     */
+    public List<Order> findBetween(Instant from, Instant to, int limit) {
+        long fromMillis = from.toEpochMilli();
+        long toMillis = to.toEpochMilli();
+        List<Order> result = new ArrayList<>();
+        for (Segment segment : segments) {
+            for (Block block : segment.blocks) {
+                if (block.maxCreated < fromMillis || block.minCreated > toMillis) {
+                    continue;
+                }
+                for (Order order : readBlock(segment, block)) {
+                    long created = order.getCreatedAt().toEpochMilli();
+                    if (created >= fromMillis && created <= toMillis) {
+                        result.add(order);
+                        if (result.size() >= limit) {
+                            return result;
+                        }
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    public boolean isEnabled() {
+        return directory != null;
+    }
+
+    public int getSegmentCount() {
+        return segments.size();
+    }
+
+    private Segment readIndex(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer header = read(channel, 0, 8);
+            if (header.getInt() != MAGIC || header.getInt() != VERSION) {
+                throw new IOException("Unknown segment format");
+            }
+            ByteBuffer trailer = read(channel, channel.size() - 12, 12);
+            long footerOffset = trailer.getLong();
+            if (trailer.getInt() != MAGIC) {
+                throw new IOException("Truncated segment");
+            }
+            ByteBuffer footer = read(channel, footerOffset, (int) (channel.size() - 12 - footerOffset));
+            int blockCount = footer.getInt();
+            List<Block> blocks = new ArrayList<>(blockCount);
+            for (int i = 0; i < blockCount; i++) {
+                blocks.add(new Block(footer.getLong(), readUuid(footer), readUuid(footer), footer.getLong(), footer.getLong()));
+            }
+            return new Segment(path, blocks);
+        }
+    }
+
+    private List<Order> readBlock(Segment segment, Block block) {
+        try (FileChannel channel = FileChannel.open(segment.path, StandardOpenOption.READ)) {
+            ByteBuffer lengths = read(channel, block.offset, 8);
+            int compressedLength = lengths.getInt();
+            int rawLength = lengths.getInt();
+            ByteBuffer compressed = read(channel, block.offset + 8, compressedLength);
+            return decode(inflate(compressed.array(), rawLength));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read order archive segment: " + segment.path, e);
+        }
+    }
+
+    private static ByteBuffer read(FileChannel channel, long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("Unexpected end of segment");
+            }
+        }
+        buffer.flip();
+        return buffer;
+    }
+
+    private static byte[] encode(List<Order> orders) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(orders.size());
+        for (Order order : orders) {
+            writeUuid(out, order.getOrderId());
+            out.writeLong(order.getCreatedAt().toEpochMilli());
+            out.writeBoolean(order.isOrderSuccess());
+            List<BookOrder> books = order.getBooks() == null ? List.of() : order.getBooks();
+            out.writeInt(books.size());
+            for (BookOrder book : books) {
+                out.writeUTF(book.getBookId());
+                out.writeInt(book.getBookQuantity());
+            }
+        }
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    private static List<Order> decode(byte[] raw) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(raw));
+        int count = in.readInt();
+        List<Order> orders = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Order order = new Order();
+            order.setOrderId(new UUID(in.readLong(), in.readLong()));
+            order.setCreatedAt(Instant.ofEpochMilli(in.readLong()));
+            order.setOrderSuccess(in.readBoolean());
+            int bookCount = in.readInt();
+            List<BookOrder> books = new ArrayList<>(bookCount);
+            for (int j = 0; j < bookCount; j++) {
+                books.add(new BookOrder(in.readUTF(), in.readInt()));
+            }
+            order.setBooks(books);
+            orders.add(order);
+        }
+        return orders;
+    }
+
+    private static byte[] deflate(byte[] raw) {
+        Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+        try {
+            deflater.setInput(raw);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(raw.length / 2 + 16);
+            byte[] chunk = new byte[8192];
+            while (!deflater.finished()) {
+                out.write(chunk, 0, deflater.deflate(chunk));
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static byte[] inflate(byte[] compressed, int rawLength) throws IOException {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(compressed);
+            byte[] raw = new byte[rawLength];
+            int read = 0;
+            while (read < rawLength && !inflater.finished()) {
+                int inflated = inflater.inflate(raw, read, rawLength - read);
+                if (inflated == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new IOException("Truncated order archive block");
+                }
+                read += inflated;
+            }
+            return raw;
+        } catch (DataFormatException e) {
+            throw new IOException("Corrupted order archive block", e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    private static void writeUuid(DataOutputStream out, UUID id) throws IOException {
+        out.writeLong(id.getMostSignificantBits());
+        out.writeLong(id.getLeastSignificantBits());
+    }
+
+    private static UUID readUuid(ByteBuffer buffer) {
+        return new UUID(buffer.getLong(), buffer.getLong());
+    }
+
+    private record Segment(Path path, List<Block> blocks) {
+    }
+
+    private record Block(long offset, UUID firstId, UUID lastId, long minCreated, long maxCreated) {
+    }
+}
@@ -2,24 +2,46 @@ package com.adobe.bookstore.service;
 
 import com.adobe.bookstore.model.Order;
 import com.adobe.bookstore.repository.OrderRepository;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
 
 @Service
 public class OrderService {
 
     private OrderRepository orderRepository;
+    private AdaptiveConcurrencyLimiter concurrencyLimiter;
+    private OrderArchive orderArchive;
+    private int maxArchivedResults;
 
-    public OrderService(OrderRepository orderRepository) {
+    public OrderService(OrderRepository orderRepository,
+                        AdaptiveConcurrencyLimiter concurrencyLimiter, OrderArchive orderArchive,
+                        @Value("${bookstore.archive.max-results:1000}") int maxArchivedResults) {
         this.orderRepository = orderRepository;
+        this.concurrencyLimiter = concurrencyLimiter;
+        this.orderArchive = orderArchive;
+        this.maxArchivedResults = maxArchivedResults;
     }
 
     /**
-     * This method saves an order in the Database.
+     * This method saves an order in the Database. Its latency drives the admission limit of the order endpoints.
      */
     public void saveOrder(Order order) {
-        orderRepository.save(order);
+        long start = System.nanoTime();
+        boolean success = false;
+        try {
+            orderRepository.save(order);
+            success = true;
+        } finally {
+            concurrencyLimiter.onSample(System.nanoTime() - start, success);
+        }
     }
 
     /**
@@ -28,5 +50,39 @@ public class OrderService {
     public List<Order> getAllOrders() {
         return orderRepository.findAll();
     }
+
+    /**
+     * Fetch the orders created between the given instants (null meaning unbounded), optionally including the archived
+     * ones. The archive grows forever, so it is only searched within a bounded range and returns at most
+     * bookstore.archive.max-results orders. An order present in both places is returned once, from the Database.
+     */
+    public List<Order> getOrders(boolean includeArchived, Instant from, Instant to) {
+        if (includeArchived && (from == null || to == null)) {
+            throw new IllegalArgumentException("Archived orders can only be fetched within a from/to range");
+        }
+        Instant start = from != null ? from : Instant.EPOCH;
+        Instant end = to != null ? to : Instant.ofEpochMilli(Long.MAX_VALUE);
+        List<Order> hot = from == null && to == null ? orderRepository.findAll()
+                : orderRepository.findByCreatedAtBetween(start, end);
+        if (!includeArchived) {
+            return hot;
+        }
+        Map<UUID, Order> orders = new LinkedHashMap<>();
+        for (Order order : orderArchive.findBetween(start, end, maxArchivedResults)) {
+            orders.put(order.getOrderId(), order);
+        }
+        for (Order order : hot) {
+            orders.put(order.getOrderId(), order);
+        }
+        return new ArrayList<>(orders.values());
+    }
+
+    /**
+     * Fetch a single order, looking into the archive when it is no longer in the Database.
+     */
+    public Optional<Order> getOrder(UUID orderId) {
+        Optional<Order> order = orderRepository.findById(orderId);
+        return order.isPresent() ? order : orderArchive.findById(orderId);
+    }
 }
 
@@ -0,0 +1,287 @@
+package com.adobe.bookstore.service;
+
+import com.adobe.bookstore.model.StockChangeEvent;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * In-process stream of stock changes. Every change gets the next sequence number and the last "capacity" changes are
+ * retained, so a consumer that reconnects can resume from the last event id it has seen instead of polling the stock.
+ *
+ * Event ids are "epoch-sequence", the epoch identifying this process: sequences restart with every process, so a
+ * consumer resuming with an id from another epoch (or from the future) gets a "reset" event before the replay.
+ *
+ * Publishing never touches the network or an emitter. Each subscriber has its own bounded queue, drained in bounded
+ * batches by a sender thread of its own. A subscriber whose queue overflows, or whose send stalls for longer than the
+ * send timeout, is disconnected, so it can reconnect and resume from the retained changes. A stalled write only holds
+ * its own sender thread until the container's write timeout releases it.
+ */
+@Service
+public class StockChangeStream {
+
+    static final String EVENT_NAME = "stock-change";
+    static final String RESET_EVENT_NAME = "reset";
+
+    private static final Logger logger = LoggerFactory.getLogger(StockChangeStream.class);
+
+    private final long epoch = System.currentTimeMillis();
+    private final int capacity;
+    private final int subscriberBuffer;
+    private final int batchSize;
+    private final long sendTimeoutNanos;
+    private final long emitterTimeoutMs;
+    private final ExecutorService sender = Executors.newCachedThreadPool();
+    private final ScheduledExecutorService watchdog = Executors.newSingleThreadScheduledExecutor();
+    private final Deque<StockChangeEvent> events = new ArrayDeque<>();
+    private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+    private long lastSequence;
+
+    public StockChangeStream(@Value("${bookstore.changes.capacity:10000}") int capacity,
+                             @Value("${bookstore.changes.subscriber-buffer:1000}") int subscriberBuffer,
+                             @Value("${bookstore.changes.batch-size:100}") int batchSize,
+                             @Value("${bookstore.changes.send-timeout-ms:5000}") long sendTimeoutMs,
+                             @Value("${bookstore.changes.emitter-timeout-ms:1800000}") long emitterTimeoutMs) {
+        this.capacity = capacity;
+        this.subscriberBuffer = subscriberBuffer;
+        this.batchSize = batchSize;
+        this.sendTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(sendTimeoutMs);
+        this.emitterTimeoutMs = emitterTimeoutMs;
+        long period = Math.max(1, sendTimeoutMs / 2);
+        watchdog.scheduleWithFixedDelay(this::disconnectStalled, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Append a change to the stream and queue it for every subscriber. Queuing never blocks, so a slow consumer cannot
+     * hold up stock updates.
+     */
+    public synchronized StockChangeEvent publish(String bookId, int quantity, int delta) {
+        StockChangeEvent event = new StockChangeEvent(++lastSequence, bookId, quantity, delta, System.currentTimeMillis());
+        events.addLast(event);
+        if (events.size() > capacity) {
+            events.removeFirst();
+        }
+        for (Subscriber subscriber : subscribers) {
+            subscriber.offer(event);
+        }
+        return event;
+    }
+
+    /**
+     * Retained changes with a sequence greater than the given one.
+     */
+    public synchronized List<StockChangeEvent> eventsSince(long sequence) {
+        List<StockChangeEvent> result = new ArrayList<>();
+        for (StockChangeEvent event : events) {
+            if (event.getSequence() > sequence) {
+                result.add(event);
+            }
+        }
+        return result;
+    }
+
+    public synchronized long getLastSequence() {
+        return lastSequence;
+    }
+
+    public long getEpoch() {
+        return epoch;
+    }
+
+    public int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    /**
+     * Open a stream that first replays the retained changes after the given sequence and then follows new ones. A
+     * "reset" event is sent first when the consumer comes from another epoch, is ahead of this process or is so far
+     * behind that changes were lost; the replay then starts from the oldest retained change.
+     */
+    public SseEmitter subscribe(long fromEpoch, long fromSequence) {
+        SseEmitter emitter = newEmitter(emitterTimeoutMs);
+        Subscriber subscriber = new Subscriber(emitter);
+        emitter.onCompletion(subscriber::release);
+        emitter.onTimeout(subscriber::release);
+        emitter.onError(e -> subscriber.release());
+
+        synchronized (this) {
+            long oldestRetained = events.isEmpty() ? lastSequence + 1 : events.peekFirst().getSequence();
+            long from = fromSequence;
+            if (fromEpoch != epoch || fromSequence > lastSequence || oldestRetained > fromSequence + 1) {
+                from = oldestRetained - 1;
+                subscriber.backlog.add(SseEmitter.event().name(RESET_EVENT_NAME).data(eventId(from)));
+            }
+            for (StockChangeEvent event : eventsSince(from)) {
+                subscriber.backlog.add(toSse(event));
+            }
+            subscribers.add(subscriber);
+        }
+        subscriber.schedule();
+        return emitter;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        watchdog.shutdownNow();
+        sender.shutdownNow();
+    }
+
+    protected SseEmitter newEmitter(long timeoutMs) {
+        return new SseEmitter(timeoutMs);
+    }
+
+    private void disconnectStalled() {
+        long now = System.nanoTime();
+        for (Subscriber subscriber : subscribers) {
+            long started = subscriber.sendStartedNanos;
+            if (started != 0 && now - started > sendTimeoutNanos) {
+                logger.debug("Disconnecting stock change subscriber whose send has stalled");
+                subscriber.disconnect();
+            }
+        }
+    }
+
+    private String eventId(long sequence) {
+        return epoch + "-" + sequence;
+    }
+
+    private SseEmitter.SseEventBuilder toSse(StockChangeEvent event) {
+        return SseEmitter.event().id(eventId(event.getSequence())).name(EVENT_NAME).data(event);
+    }
+
+    /**
+     * A connected consumer: the replay it asked for, then the live changes. At most one sender thread works on it at a
+     * time, and only the sender thread ever calls the emitter.
+     */
+    private final class Subscriber implements Runnable {
+
+        private final SseEmitter emitter;
+        private final Queue<SseEmitter.SseEventBuilder> backlog = new ConcurrentLinkedQueue<>();
+        private final BlockingQueue<StockChangeEvent> live = new ArrayBlockingQueue<>(subscriberBuffer);
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        private volatile boolean closed;
+        private volatile boolean released;
+        private volatile long sendStartedNanos;
+
+        Subscriber(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        /**
+         * Called under the stream lock, so it must never block: an overflowing subscriber is only marked as
+         * disconnected, its sender thread completes the emitter.
+         */
+        void offer(StockChangeEvent event) {
+            if (closed) {
+                return;
+            }
+            if (!live.offer(event)) {
+                logger.debug("Disconnecting stock change subscriber that is too far behind");
+                disconnect();
+                return;
+            }
+            schedule();
+        }
+
+        void schedule() {
+            if (!closed && scheduled.compareAndSet(false, true)) {
+                sender.execute(this);
+            }
+        }
+
+        void close() {
+            closed = true;
+            subscribers.remove(this);
+        }
+
+        /**
+         * Called by the container once it is done with the response. Waits for a send in progress, so that nothing
+         * writes to the response once the container may recycle it for another request.
+         */
+        void release() {
+            synchronized (emitter) {
+                released = true;
+                close();
+            }
+        }
+
+        /**
+         * Stop queueing for this subscriber and let a sender thread complete its emitter. If a send is stuck, the
+         * running sender thread completes it once the write returns or fails.
+         */
+        void disconnect() {
+            close();
+            backlog.clear();
+            live.clear();
+            if (scheduled.compareAndSet(false, true)) {
+                sender.execute(this);
+            }
+        }
+
+        @Override
+        public void run() {
+            try {
+                for (int sent = 0; sent < batchSize && !closed; sent++) {
+                    SseEmitter.SseEventBuilder next = backlog.poll();
+                    if (next == null) {
+                        StockChangeEvent event = live.poll();
+                        if (event == null) {
+                            break;
+                        }
+                        next = toSse(event);
+                    }
+                    synchronized (emitter) {
+                        if (closed) {
+                            break;
+                        }
+                        sendStartedNanos = System.nanoTime();
+                        emitter.send(next);
+                        sendStartedNanos = 0;
+                    }
+                }
+            } catch (IOException | IllegalStateException e) {
+                sendStartedNanos = 0;
+                logger.debug("Dropping stock change subscriber", e);
+                close();
+                emitter.completeWithError(e);
+                return;
+            }
+            if (closed) {
+                synchronized (emitter) {
+                    if (!released) {
+                        try {
+                            emitter.complete();
+                        } catch (IllegalStateException e) {
+                            // Already completed by the container.
+                        }
+                    }
+                }
+                return;
+            }
+            scheduled.set(false);
+            // Give the thread back after a batch, and pick up changes queued (or a disconnect) after the last check.
+            if ((closed || !backlog.isEmpty() || !live.isEmpty()) && scheduled.compareAndSet(false, true)) {
+                sender.execute(this);
+            }
+        }
+    }
+}
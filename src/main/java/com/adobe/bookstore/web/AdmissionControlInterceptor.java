@@ -0,0 +1,54 @@
+package com.adobe.bookstore.web;
+
+import com.adobe.bookstore.service.AdaptiveConcurrencyLimiter;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+/**
+ * Sheds requests with a 503 and a Retry-After header once the adaptive limit is reached, before they can pile up on
+ * Tomcat threads. GET requests are treated as reads and are admitted ahead of writes.
+ */
+@Component
+public class AdmissionControlInterceptor implements HandlerInterceptor {
+
+    private static final String ADMITTED = AdmissionControlInterceptor.class.getName() + ".admitted";
+
+    private final AdaptiveConcurrencyLimiter limiter;
+    private final int retryAfterSeconds;
+
+    public AdmissionControlInterceptor(AdaptiveConcurrencyLimiter limiter,
+                                       @Value("${bookstore.admission.retry-after-seconds:1}") int retryAfterSeconds) {
+        this.limiter = limiter;
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws Exception {
+        boolean write = !HttpMethod.GET.matches(request.getMethod());
+        if (limiter.tryAcquire(write)) {
+            request.setAttribute(ADMITTED, write);
+            return true;
+        }
+        response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.getWriter().write("{\"message\":\"The service is overloaded, please retry later\"}");
+        return false;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        Object write = request.getAttribute(ADMITTED);
+        if (write != null) {
+            request.removeAttribute(ADMITTED);
+            limiter.release((Boolean) write);
+        }
+    }
+}
@@ -1,16 +1,20 @@
 package com.adobe.bookstore.web;
 
-import com.adobe.bookstore.model.BookOrder;
 import com.adobe.bookstore.model.Order;
 import com.adobe.bookstore.service.BookStockService;
 import com.adobe.bookstore.service.OrderService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
 
+import java.time.Instant;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.UUID;
 
 @RestController
 @RequestMapping("/orders")
@@ -38,12 +42,13 @@ public class BookOrderResource {
             return ResponseEntity.badRequest().body(response);
         }
 
-        // Check sufficiency of stock. If no enough stock is available, reject the order with a message.
-        for (BookOrder bookOrder : order.getBooks()) {
-            if (!bookStockService.isSufficientStock(bookOrder.getBookId(), bookOrder.getBookQuantity())) {
-                response.put("message", "Insufficient stock for book ID: " + bookOrder.getBookId());
-                return ResponseEntity.badRequest().body(response);
-            }
+        // Check sufficiency of stock. If no enough stock is available, reject the order with a message listing every
+        // book that is short, so large orders can be fixed in one go.
+        List<String> insufficientBookIds = bookStockService.findInsufficientStock(order.getBooks());
+        if (!insufficientBookIds.isEmpty()) {
+            response.put("message", "Insufficient stock for book ID: " + insufficientBookIds.get(0));
+            response.put("insufficientBookIds", insufficientBookIds);
+            return ResponseEntity.badRequest().body(response);
         }
         // if we have enough quantity then we'll fulfill the order and update the stock;
         order.setOrderSuccess(true);
@@ -60,11 +65,31 @@ public class BookOrderResource {
     }
 
     /**
-     * This endpoint(/orders) is used for the "orders retrieval" feature
+     * This endpoint(/orders) is used for the "orders retrieval" feature. from/to (ISO-8601 instants) narrow it down to
+     * a creation time range. Aged orders are only part of the result when includeArchived=true, which requires both.
      */
     @GetMapping
-    public ResponseEntity<List<Order>> getAllOrders() {
-        List<Order> orders = orderService.getAllOrders();
+    public ResponseEntity<List<Order>> getAllOrders(
+            @RequestParam(defaultValue = "false") boolean includeArchived,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to) {
+        if (!includeArchived && from == null && to == null) {
+            return ResponseEntity.ok(orderService.getAllOrders());
+        }
+        if (includeArchived && (from == null || to == null)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "includeArchived requires both from and to");
+        }
+        List<Order> orders = orderService.getOrders(includeArchived, from, to);
         return ResponseEntity.ok(orders);
     }
+
+    /**
+     * This endpoint(/orders/{orderId}) returns a single order, whether it is still recent or already archived.
+     */
+    @GetMapping("/{orderId}")
+    public ResponseEntity<Order> getOrder(@PathVariable UUID orderId) {
+        return orderService.getOrder(orderId)
+                .map(order -> ResponseEntity.ok(order))
+                .orElse(ResponseEntity.notFound().build());
+    }
 }
@@ -2,19 +2,24 @@ package com.adobe.bookstore.web;
 
 import com.adobe.bookstore.repository.BookStockRepository;
 import com.adobe.bookstore.model.BookStock;
+import com.adobe.bookstore.service.StockChangeStream;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 @RestController
 @RequestMapping("/books_stock/")
 public class BookStockResource {
 
     private BookStockRepository bookStockRepository;
+    private StockChangeStream stockChangeStream;
 
     @Autowired
-    public BookStockResource(BookStockRepository bookStockRepository) {
+    public BookStockResource(BookStockRepository bookStockRepository, StockChangeStream stockChangeStream) {
         this.bookStockRepository = bookStockRepository;
+        this.stockChangeStream = stockChangeStream;
     }
     @GetMapping("{bookId}")
     public ResponseEntity<BookStock> getStockById(@PathVariable String bookId) {
@@ -22,4 +27,27 @@ public class BookStockResource {
                 .map(bookStock -> ResponseEntity.ok(bookStock))
                 .orElse(ResponseEntity.notFound().build());
     }
+
+    /**
+     * Server-Sent Events stream of stock changes. Consumers resume with the Last-Event-ID header (sent automatically by
+     * EventSource clients on reconnect) or with the epoch and fromSequence parameters; without either they only get new
+     * changes. An id that cannot be parsed is answered with a reset and a full replay.
+     */
+    @GetMapping(value = "changes", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamChanges(@RequestParam(required = false) Long epoch,
+                                    @RequestParam(required = false) Long fromSequence,
+                                    @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        long fromEpoch = epoch != null ? epoch : stockChangeStream.getEpoch();
+        long from = fromSequence != null ? fromSequence : stockChangeStream.getLastSequence();
+        if (lastEventId != null) {
+            String[] parts = lastEventId.split("-", 2);
+            try {
+                fromEpoch = Long.parseLong(parts[0]);
+                from = Long.parseLong(parts[1]);
+            } catch (RuntimeException e) {
+                from = Long.MAX_VALUE;
+            }
+        }
+        return stockChangeStream.subscribe(fromEpoch, from);
+    }
 }
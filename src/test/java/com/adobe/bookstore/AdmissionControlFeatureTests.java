@@ -0,0 +1,138 @@
+package com.adobe.bookstore;
+
+import com.adobe.bookstore.model.BookOrder;
+import com.adobe.bookstore.model.BookStock;
+import com.adobe.bookstore.model.Order;
+import com.adobe.bookstore.service.AdaptiveConcurrencyLimiter;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.jdbc.Sql;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class AdmissionControlFeatureTests {
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private AdaptiveConcurrencyLimiter concurrencyLimiter;
+
+    /**
+     * Test that the limit backs off on slow saves and slowly grows back on fast ones.
+     */
+    @Test
+    public void testLimitFollowsLatency() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(10, 2, 100, 100, 0.5, 0.75);
+
+        limiter.onSample(TimeUnit.MILLISECONDS.toNanos(500), true);
+        assertThat(limiter.getLimit()).isEqualTo(5);
+        for (int i = 0; i < 5; i++) {
+            limiter.onSample(TimeUnit.MILLISECONDS.toNanos(10), false);
+        }
+        assertThat(limiter.getLimit()).isEqualTo(2);
+
+        for (int i = 0; i < 20; i++) {
+            limiter.onSample(TimeUnit.MILLISECONDS.toNanos(10), true);
+        }
+        assertThat(limiter.getLimit()).isGreaterThan(2);
+    }
+
+    /**
+     * Test that a burst of slow saves, all in flight when the database slowed down, only cuts the limit once.
+     */
+    @Test
+    public void testBurstOfSlowSamplesBacksOffOnce() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(20, 2, 100, 100, 0.9, 0.75);
+
+        for (int i = 0; i < 18; i++) {
+            limiter.onSample(TimeUnit.MILLISECONDS.toNanos(500), true);
+        }
+        assertThat(limiter.getLimit()).isEqualTo(18);
+
+        // The next window of slow samples backs off again.
+        limiter.onSample(TimeUnit.MILLISECONDS.toNanos(500), true);
+        assertThat(limiter.getLimit()).isEqualTo(16);
+    }
+
+    /**
+     * Test that writes are shed before reads once the limit is reached.
+     */
+    @Test
+    public void testReadsArePrioritizedOverWrites() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(4, 2, 100, 100, 0.5, 0.5);
+
+        assertThat(limiter.tryAcquire(true)).isTrue();
+        assertThat(limiter.tryAcquire(true)).isTrue();
+        assertThat(limiter.tryAcquire(true)).isFalse();
+        assertThat(limiter.tryAcquire(false)).isTrue();
+        assertThat(limiter.tryAcquire(false)).isTrue();
+        assertThat(limiter.tryAcquire(false)).isFalse();
+
+        limiter.release(false);
+        assertThat(limiter.getInFlight()).isEqualTo(3);
+    }
+
+    /**
+     * Test that a limit at its minimum still admits writes under a steady read load, so it can grow back.
+     */
+    @Test
+    public void testLimitRecoversUnderReadLoad() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(2, 2, 100, 100, 0.5, 0.75);
+        while (limiter.tryAcquire(false)) {
+            // keep every read slot busy
+        }
+
+        for (int i = 0; i < 10; i++) {
+            assertThat(limiter.tryAcquire(true)).isTrue();
+            limiter.onSample(TimeUnit.MILLISECONDS.toNanos(10), true);
+            limiter.release(true);
+        }
+        assertThat(limiter.getLimit()).isGreaterThan(2);
+    }
+
+    /**
+     * Test that an overloaded service rejects new orders with 503 and Retry-After while still serving stock reads.
+     */
+    @Test
+    @Sql(statements = "INSERT INTO book_stock (id, name, quantity) VALUES ('50319-77420', 'admission book', 10)")
+    public void testOverloadedCreateOrderIsShed() {
+        int held = 0;
+        try {
+            while (concurrencyLimiter.tryAcquire(true)) {
+                held++;
+            }
+
+            Order order = new Order();
+            order.setBooks(List.of(new BookOrder("50319-77420", 1)));
+            ResponseEntity<Map> response = restTemplate.postForEntity(
+                    "http://localhost:" + port + "/orders/create",
+                    order,
+                    Map.class
+            );
+            assertThat(response.getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+            assertThat(response.getHeaders().getFirst(HttpHeaders.RETRY_AFTER)).isNotNull();
+
+            var stockResult = restTemplate.getForObject("http://localhost:" + port + "/books_stock/50319-77420", BookStock.class);
+            assertThat(stockResult.getQuantity()).isEqualTo(10);
+        } finally {
+            for (int i = 0; i < held; i++) {
+                concurrencyLimiter.release(true);
+            }
+        }
+    }
+}
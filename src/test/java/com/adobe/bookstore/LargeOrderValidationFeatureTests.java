@@ -0,0 +1,42 @@
+package com.adobe.bookstore;
+
+import com.adobe.bookstore.model.BookOrder;
+import com.adobe.bookstore.service.BookStockService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.jdbc.Sql;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class LargeOrderValidationFeatureTests {
+
+    @Autowired
+    private BookStockService bookStockService;
+
+    /**
+     * Test that the parallel path gathers every failing line and agrees with the sequential path.
+     */
+    @Test
+    @Sql(statements = {
+            "INSERT INTO book_stock (id, name, quantity) VALUES ('60418-11111', 'wholesale book 1', 1000)",
+            "INSERT INTO book_stock (id, name, quantity) VALUES ('60418-22222', 'wholesale book 2', 3)"
+    })
+    public void testParallelValidationGathersAllFailures() {
+        List<BookOrder> books = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            books.add(new BookOrder("60418-11111", 1));
+        }
+        books.add(300, new BookOrder("60418-22222", 5));
+        books.add(700, new BookOrder("60418-unknown", 1));
+
+        List<String> parallel = bookStockService.validateInParallel(books);
+        assertThat(parallel).containsExactly("60418-22222", "60418-unknown");
+        assertThat(bookStockService.validateSequentially(books)).isEqualTo(parallel);
+        assertThat(bookStockService.findInsufficientStock(books)).isEqualTo(parallel);
+    }
+}
@@ -0,0 +1,147 @@
+package com.adobe.bookstore;
+
+import com.adobe.bookstore.model.BookOrder;
+import com.adobe.bookstore.model.Order;
+import com.adobe.bookstore.repository.OrderRepository;
+import com.adobe.bookstore.service.OrderArchivalService;
+import com.adobe.bookstore.service.OrderArchive;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class OrderArchivalFeatureTests {
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private OrderArchivalService orderArchivalService;
+
+    @TempDir
+    Path tempDir;
+
+    // Archival is disabled until a directory is configured.
+    @TempDir
+    static Path archiveDir;
+
+    @DynamicPropertySource
+    static void archiveProperties(DynamicPropertyRegistry registry) {
+        registry.add("bookstore.archive.dir", () -> archiveDir.toString());
+    }
+
+    /**
+     * Test that archived orders can be found by id and by date after the archive is reopened.
+     */
+    @Test
+    public void testArchiveSegmentsAreSearchable() throws Exception {
+        Instant base = Instant.parse("2020-01-01T00:00:00Z");
+        List<Order> orders = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            Order order = new Order();
+            order.setOrderId(UUID.randomUUID());
+            order.setCreatedAt(base.plus(Duration.ofDays(i)));
+            order.setOrderSuccess(true);
+            order.setBooks(List.of(new BookOrder("archived-book-" + i, i % 5 + 1)));
+            orders.add(order);
+        }
+
+        OrderArchive archive = new OrderArchive(tempDir.toString(), 16);
+        archive.load();
+        archive.append(orders.subList(0, 200));
+        archive.append(orders.subList(200, 300));
+
+        OrderArchive reopened = new OrderArchive(tempDir.toString(), 16);
+        reopened.load();
+        assertThat(reopened.getSegmentCount()).isEqualTo(2);
+        Instant end = base.plus(Duration.ofDays(300));
+        assertThat(reopened.findBetween(base, end, 1000)).hasSize(300);
+        assertThat(reopened.findBetween(base, end, 50)).hasSize(50);
+
+        Order expected = orders.get(250);
+        Order found = reopened.findById(expected.getOrderId()).orElseThrow();
+        assertThat(found.getCreatedAt()).isEqualTo(expected.getCreatedAt());
+        assertThat(found.getBooks()).extracting(BookOrder::getBookId).containsExactly("archived-book-250");
+        assertThat(reopened.findById(UUID.randomUUID())).isEmpty();
+
+        List<Order> january = reopened.findBetween(base, base.plus(Duration.ofDays(30)), 1000);
+        assertThat(january).hasSize(31);
+    }
+
+    /**
+     * Test that an archive without a directory is disabled and never touches the disk.
+     */
+    @Test
+    public void testArchiveIsDisabledWithoutDirectory() throws Exception {
+        OrderArchive archive = new OrderArchive("", 16);
+        archive.load();
+
+        assertThat(archive.isEnabled()).isFalse();
+        assertThat(archive.findById(UUID.randomUUID())).isEmpty();
+        assertThatThrownBy(() -> archive.append(List.of(new Order()))).isInstanceOf(IllegalStateException.class);
+    }
+
+    /**
+     * Test that aged orders leave the orders table and are still served when historical data is requested.
+     */
+    @Test
+    public void testAgedOrdersAreArchivedAndRetrievable() {
+        Order order = new Order();
+        order.setCreatedAt(Instant.now().minus(Duration.ofDays(400)));
+        order.setOrderSuccess(true);
+        order.setBooks(List.of(new BookOrder("28465-90317", 3)));
+        UUID orderId = orderRepository.save(order).getOrderId();
+
+        int archived = orderArchivalService.archiveOrdersBefore(Instant.now().minus(Duration.ofDays(300)));
+        assertThat(archived).isGreaterThanOrEqualTo(1);
+        assertThat(orderRepository.findById(orderId)).isEmpty();
+
+        Map<String, Object> single = restTemplate.getForObject(
+                "http://localhost:" + port + "/orders/" + orderId, Map.class);
+        assertThat(single.get("orderId")).isEqualTo(orderId.toString());
+
+        List<Map<String, Object>> recent = restTemplate.getForObject(
+                "http://localhost:" + port + "/orders", List.class);
+        assertThat(recent).noneMatch(o -> orderId.toString().equals(o.get("orderId")));
+
+        Instant from = Instant.now().minus(Duration.ofDays(500));
+        Instant to = Instant.now();
+        List<Map<String, Object>> historical = restTemplate.getForObject(
+                "http://localhost:" + port + "/orders?includeArchived=true&from=" + from + "&to=" + to, List.class);
+        assertThat(historical).anyMatch(o -> orderId.toString().equals(o.get("orderId")));
+    }
+
+    /**
+     * Test that the archive is never read without a date range.
+     */
+    @Test
+    public void testArchivedOrdersRequireRange() {
+        ResponseEntity<String> response = restTemplate.getForEntity(
+                "http://localhost:" + port + "/orders?includeArchived=true", String.class);
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+    }
+}
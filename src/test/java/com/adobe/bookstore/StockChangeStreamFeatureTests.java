@@ -0,0 +1,195 @@
+package com.adobe.bookstore;
+
+import com.adobe.bookstore.model.BookOrder;
+import com.adobe.bookstore.model.StockChangeEvent;
+import com.adobe.bookstore.service.BookStockService;
+import com.adobe.bookstore.service.StockChangeStream;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class StockChangeStreamFeatureTests {
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private BookStockService bookStockService;
+
+    @Autowired
+    private StockChangeStream stockChangeStream;
+
+    /**
+     * Test that only the last changes are retained and that sequence numbers keep increasing.
+     */
+    @Test
+    public void testStreamIsBounded() {
+        StockChangeStream stream = new StockChangeStream(3, 10, 100, 5000, 1000);
+        for (int i = 0; i < 5; i++) {
+            stream.publish("bounded-book", 10 - i, -1);
+        }
+
+        List<StockChangeEvent> events = stream.eventsSince(0);
+        assertThat(events).extracting(StockChangeEvent::getSequence).containsExactly(3L, 4L, 5L);
+        assertThat(stream.eventsSince(4)).extracting(StockChangeEvent::getQuantity).containsExactly(6);
+        stream.shutdown();
+    }
+
+    /**
+     * Test that a consumer which never reads cannot hold up stock updates: once its queue overflows it is dropped while
+     * publish keeps returning, even though its emitter is stuck in a send.
+     */
+    @Test
+    public void testStalledConsumerDoesNotBlockPublish() throws Exception {
+        StalledEmitter emitter = new StalledEmitter();
+        StockChangeStream stream = streamWith(emitter, 60000);
+        try {
+            stream.subscribe(stream.getEpoch(), stream.getLastSequence());
+            stream.publish("stalled-book", 10, -1);
+            assertThat(emitter.sending.await(5, TimeUnit.SECONDS)).isTrue();
+
+            assertTimeoutPreemptively(Duration.ofSeconds(5), () -> {
+                for (int i = 0; i < 20; i++) {
+                    stream.publish("stalled-book", 9 - i, -1);
+                }
+            });
+            assertThat(stream.getSubscriberCount()).isZero();
+        } finally {
+            emitter.released.countDown();
+            stream.shutdown();
+        }
+    }
+
+    /**
+     * Test that a consumer whose send stalls is disconnected after the send timeout, without waiting for its queue to
+     * overflow.
+     */
+    @Test
+    public void testStalledSendIsDisconnected() throws Exception {
+        StalledEmitter emitter = new StalledEmitter();
+        StockChangeStream stream = streamWith(emitter, 100);
+        try {
+            stream.subscribe(stream.getEpoch(), stream.getLastSequence());
+            stream.publish("slow-book", 10, -1);
+            assertThat(emitter.sending.await(5, TimeUnit.SECONDS)).isTrue();
+
+            long deadline = System.currentTimeMillis() + 5000;
+            while (stream.getSubscriberCount() > 0 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(20);
+            }
+            assertThat(stream.getSubscriberCount()).isZero();
+        } finally {
+            emitter.released.countDown();
+            stream.shutdown();
+        }
+    }
+
+    /**
+     * Test that a stock update is published and can be resumed over Server-Sent Events.
+     */
+    @Test
+    @Sql(statements = "INSERT INTO book_stock (id, name, quantity) VALUES ('73920-48151', 'streamed book', 10)")
+    public void testStockUpdateIsStreamed() throws Exception {
+        long before = stockChangeStream.getLastSequence();
+        bookStockService.updateStock(List.of(new BookOrder("73920-48151", 4)));
+
+        // Wait for asynchronous stock update to complete.
+        CountDownLatch latch = new CountDownLatch(1);
+        latch.await(500, TimeUnit.MILLISECONDS);
+
+        HttpURLConnection connection = (HttpURLConnection) new URL(
+                "http://localhost:" + port + "/books_stock/changes?fromSequence=" + before).openConnection();
+        connection.setReadTimeout(5000);
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(connection.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            String data = null;
+            while ((line = reader.readLine()) != null) {
+                if (line.startsWith("data:") && line.contains("73920-48151")) {
+                    data = line;
+                    break;
+                }
+            }
+            assertThat(data).contains("\"quantity\":6").contains("\"delta\":-4");
+        } finally {
+            connection.disconnect();
+        }
+    }
+
+    /**
+     * Test that a consumer resuming with an event id from a previous process is told to resync instead of silently
+     * missing the changes of this process.
+     */
+    @Test
+    public void testResumeFromPreviousProcessIsReset() throws Exception {
+        HttpURLConnection connection = (HttpURLConnection) new URL(
+                "http://localhost:" + port + "/books_stock/changes").openConnection();
+        connection.setRequestProperty("Last-Event-ID", (stockChangeStream.getEpoch() - 1) + "-500");
+        connection.setReadTimeout(5000);
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(connection.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            String firstEvent = null;
+            while ((line = reader.readLine()) != null) {
+                if (line.startsWith("event:")) {
+                    firstEvent = line;
+                    break;
+                }
+            }
+            assertThat(firstEvent).isEqualTo("event:reset");
+        } finally {
+            connection.disconnect();
+        }
+    }
+
+    private static StockChangeStream streamWith(SseEmitter emitter, long sendTimeoutMs) {
+        return new StockChangeStream(100, 5, 100, sendTimeoutMs, 60000) {
+            @Override
+            protected SseEmitter newEmitter(long timeoutMs) {
+                return emitter;
+            }
+        };
+    }
+
+    /**
+     * Emitter whose sends block like a write to a client that stopped reading. Like the real one, send and complete
+     * share the emitter monitor.
+     */
+    private static class StalledEmitter extends SseEmitter {
+
+        final CountDownLatch sending = new CountDownLatch(1);
+        final CountDownLatch released = new CountDownLatch(1);
+
+        @Override
+        public synchronized void send(SseEventBuilder builder) throws IOException {
+            sending.countDown();
+            try {
+                released.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        @Override
+        public synchronized void complete() {
+        }
+    }
+}
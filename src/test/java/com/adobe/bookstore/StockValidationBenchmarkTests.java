@@ -0,0 +1,107 @@
+package com.adobe.bookstore;
+
+import com.adobe.bookstore.model.BookOrder;
+import com.adobe.bookstore.model.BookStock;
+import com.adobe.bookstore.repository.BookStockRepository;
+import com.adobe.bookstore.service.BookStockService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Function;
+
+/*
+ *   Benchmark comparing the sequential and the parallel validation of an order, used to pick
+ *   bookstore.validation.parallel-threshold. It is skipped by default, run it with:
+ *   ./mvnw test -Dtest=StockValidationBenchmarkTests -Dbenchmark=true
+ */
+@SpringBootTest
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class StockValidationBenchmarkTests {
+
+    private static final Logger logger = LoggerFactory.getLogger(StockValidationBenchmarkTests.class);
+    private static final int CATALOG_SIZE = 4096;
+    private static final int ROUNDS = 30;
+
+    @Autowired
+    private BookStockService bookStockService;
+
+    @Autowired
+    private BookStockRepository stockRepository;
+
+    @Test
+    public void findCrossoverPoint() {
+        List<BookStock> catalog = new ArrayList<>();
+        for (int i = 0; i < CATALOG_SIZE; i++) {
+            BookStock stock = new BookStock();
+            stock.setId("bench-" + i);
+            stock.setName("benchmark book " + i);
+            stock.setQuantity(100);
+            catalog.add(stock);
+        }
+        stockRepository.saveAll(catalog);
+
+        // Warm up both paths on the largest order before measuring anything.
+        List<BookOrder> warmUp = order(CATALOG_SIZE);
+        for (int i = 0; i < 5; i++) {
+            bookStockService.validateSequentially(warmUp);
+            bookStockService.validateInParallel(warmUp);
+        }
+
+        // Both paths use the same batched lookup, so the difference is the cost (or gain) of the fork-join split.
+        List<Integer> sizes = new ArrayList<>();
+        List<Boolean> parallelFaster = new ArrayList<>();
+        for (int lines = 1; lines <= CATALOG_SIZE; lines *= 2) {
+            List<BookOrder> books = order(lines);
+            long[] sequential = new long[ROUNDS];
+            long[] parallel = new long[ROUNDS];
+            // Interleave the rounds so that both paths see the same conditions.
+            for (int i = 0; i < ROUNDS; i++) {
+                sequential[i] = time(bookStockService::validateSequentially, books);
+                parallel[i] = time(bookStockService::validateInParallel, books);
+            }
+            long sequentialMedian = median(sequential);
+            long parallelMedian = median(parallel);
+            logger.info(String.format("%5d lines: sequential %8d us, parallel %8d us", lines,
+                    sequentialMedian / 1000, parallelMedian / 1000));
+            sizes.add(lines);
+            parallelFaster.add(parallelMedian < sequentialMedian);
+        }
+
+        // The crossover is the smallest size from which the parallel path stays faster.
+        Integer crossover = null;
+        for (int i = sizes.size() - 1; i >= 0 && parallelFaster.get(i); i--) {
+            crossover = sizes.get(i);
+        }
+        logger.info(crossover == null
+                ? "Parallel validation is not faster at any measured size"
+                : "Parallel validation is faster from " + crossover + " lines on");
+        stockRepository.deleteAll(catalog);
+    }
+
+    private static List<BookOrder> order(int lines) {
+        List<BookOrder> books = new ArrayList<>();
+        for (int i = 0; i < lines; i++) {
+            books.add(new BookOrder("bench-" + i, 1));
+        }
+        return books;
+    }
+
+    private static long time(Function<List<BookOrder>, List<String>> validation, List<BookOrder> books) {
+        long start = System.nanoTime();
+        validation.apply(books);
+        return System.nanoTime() - start;
+    }
+
+    private static long median(long[] timings) {
+        long[] sorted = timings.clone();
+        Arrays.sort(sorted);
+        return sorted[sorted.length / 2];
+    }
+}